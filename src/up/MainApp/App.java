@@ -17,8 +17,12 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Scanner;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.LinkedList;
 import java.util.Comparator;
 import java.util.PriorityQueue;
@@ -39,6 +43,26 @@ class Board extends JComponent {
     double max_distance;
     int current;
     LinkedList<Integer> path;
+    /** Trace en cours de relecture (null en affichage direct) */
+    SearchTrace trace;
+    /** Nombre d'evenements de la trace deja rejoues */
+    int tracePos;
+    /** Distances reconstituees par la relecture */
+    double[] replayDist;
+    /** Predecesseurs reconstitues par la relecture (-1 si aucun) */
+    int[] replayPrev;
+    /** Minuterie de la relecture asynchrone */
+    Timer replayTimer;
+    /** Vitesse de relecture, en evenements par seconde */
+    int speed;
+    /** Evenements dus mais pas encore rejoues (fraction accumulee d'un pas a l'autre) */
+    double pending;
+    /** Curseur de navigation dans la trace (optionnel) */
+    JSlider scrubber;
+    /** Reglage de la vitesse de relecture (optionnel) */
+    JSpinner speedControl;
+    /** Vrai pendant une mise a jour du curseur par la relecture elle-meme */
+    boolean syncing;
 
     /**
      * Constructeur du composant d'affichage.
@@ -88,6 +112,8 @@ class Board extends JComponent {
                 g2.setPaint(Color.blue);
             if (colors.get((int) type).equals("yellow"))
                 g2.setPaint(Color.yellow);
+            if (colors.get((int) type).equals("black"))
+                g2.setPaint(Color.black);
             g2.fill(new Rectangle2D.Double(j * this.pixelSize, i * this.pixelSize, this.pixelSize, this.pixelSize));
 
             if (num_case == this.current) {
@@ -105,20 +131,22 @@ class Board extends JComponent {
             num_case += 1;
         }
 
+        // Etat de la recherche : sommets du graphe, ou etat reconstitue en relecture
         num_case = 0;
         for (Vertex v : this.graph.vertexlist) {
             int i = num_case / this.ncols;
             int j = num_case % this.ncols;
-            if (v.timeFromSource < Double.POSITIVE_INFINITY) {
-                float g_value = (float) (1 - v.timeFromSource / this.max_distance);
+            double dist = (this.trace != null) ? this.replayDist[num_case] : v.timeFromSource;
+            int previous = (this.trace != null) ? this.replayPrev[num_case] : (v.prev != null ? v.prev.num : -1);
+            if (dist < Double.POSITIVE_INFINITY) {
+                float g_value = (float) (1 - dist / this.max_distance);
                 if (g_value < 0)
                     g_value = 0;
                 g2.setPaint(new Color(g_value, g_value, g_value));
                 g2.fill(new Ellipse2D.Double(j * this.pixelSize + this.pixelSize / 2, i * this.pixelSize + this.pixelSize / 2, 4, 4));
-                Vertex previous = v.prev;
-                if (previous != null) {
-                    int i2 = previous.num / this.ncols;
-                    int j2 = previous.num % this.ncols;
+                if (previous != -1) {
+                    int i2 = previous / this.ncols;
+                    int j2 = previous % this.ncols;
                     g2.setPaint(Color.black);
                     g2.draw(new Line2D.Double(j * this.pixelSize + this.pixelSize / 2, i * this.pixelSize + this.pixelSize / 2, j2 * this.pixelSize + this.pixelSize / 2, i2 * this.pixelSize + this.pixelSize / 2));
                 }
@@ -165,6 +193,170 @@ class Board extends JComponent {
         this.current = -1;
         repaint();
     }
+
+    /**
+     * Rejoue une trace de recherche de maniere asynchrone (minuterie Swing) :
+     * l'appel rend la main immediatement. Le chemin est affiche a la fin de la relecture.
+     * A appeler depuis le thread de Swing (SwingUtilities.invokeLater).
+     * @param trace trace enregistree pendant la recherche
+     * @param speed vitesse de relecture, en evenements par seconde
+     */
+    public void replay(SearchTrace trace, int speed) {
+        // Etat reconstitue pret avant que paint() ne voie la trace
+        this.replayDist = new double[this.graph.num_v];
+        this.replayPrev = new int[this.graph.num_v];
+        resetReplay();
+        this.trace = trace;
+        if (this.scrubber != null) {
+            this.syncing = true;
+            this.scrubber.setMaximum(trace.size());
+            this.scrubber.setValue(0);
+            this.syncing = false;
+        }
+        if (this.replayTimer != null)
+            this.replayTimer.stop();
+        this.replayTimer = new Timer(10, e -> step());
+        setSpeed(speed);
+        this.replayTimer.start();
+    }
+
+    /**
+     * Associe un curseur pour naviguer dans la trace ; le deplacer met la relecture en pause.
+     * @param scrubber curseur de navigation
+     */
+    public void setScrubber(JSlider scrubber) {
+        this.scrubber = scrubber;
+        scrubber.addChangeListener(e -> {
+            if (!this.syncing && this.trace != null)
+                seek(scrubber.getValue());
+        });
+    }
+
+    /**
+     * Associe un reglage de la vitesse de relecture.
+     * @param speedControl reglage en evenements par seconde
+     */
+    public void setSpeedControl(JSpinner speedControl) {
+        this.speedControl = speedControl;
+        speedControl.addChangeListener(e -> {
+            if (!this.syncing)
+                setSpeed(((Number) speedControl.getValue()).intValue());
+        });
+    }
+
+    /**
+     * Change la vitesse de relecture, y compris pendant la relecture.
+     * Au-dela de 100 evenements par seconde, la minuterie bat toutes les 10 ms
+     * et rejoue plusieurs evenements par pas ; en dessous, le pas s'allonge
+     * (jusqu'a une seconde pour 1 evenement par seconde).
+     * @param speed vitesse en evenements par seconde (au moins 1)
+     */
+    public void setSpeed(int speed) {
+        this.speed = Math.max(1, speed);
+        this.pending = 0;
+        int delay = Math.max(10, 1000 / this.speed);
+        if (this.replayTimer != null) {
+            this.replayTimer.setDelay(delay);
+            this.replayTimer.setInitialDelay(delay);
+        }
+        if (this.speedControl != null && ((Number) this.speedControl.getValue()).intValue() != this.speed) {
+            this.syncing = true;
+            this.speedControl.setValue(this.speed);
+            this.syncing = false;
+        }
+    }
+
+    /**
+     * Met en pause ou relance la relecture.
+     */
+    public void togglePause() {
+        if (this.replayTimer == null)
+            return;
+        if (this.replayTimer.isRunning())
+            this.replayTimer.stop();
+        else if (this.tracePos < this.trace.size())
+            this.replayTimer.start();
+    }
+
+    /**
+     * Positionne la relecture sur un evenement donne (et la met en pause).
+     * @param position nombre d'evenements a rejouer depuis le debut de la trace
+     */
+    public void seek(int position) {
+        if (this.replayTimer != null)
+            this.replayTimer.stop();
+        applyUntil(Math.max(0, Math.min(position, this.trace.size())));
+        this.path = (this.tracePos == this.trace.size()) ? replayPath() : null;
+        repaint();
+    }
+
+    /**
+     * Un pas de la minuterie : rejoue les evenements suivants.
+     */
+    private void step() {
+        this.pending += this.speed * this.replayTimer.getDelay() / 1000.0;
+        int count = (int) this.pending;
+        this.pending -= count;
+        applyUntil(Math.min(this.trace.size(), this.tracePos + count));
+        if (this.tracePos == this.trace.size()) {
+            this.replayTimer.stop();
+            this.path = replayPath();
+            this.current = -1;
+        }
+        if (this.scrubber != null) {
+            this.syncing = true;
+            this.scrubber.setValue(this.tracePos);
+            this.syncing = false;
+        }
+        repaint();
+    }
+
+    /**
+     * Remet l'etat reconstitue au debut de la trace.
+     */
+    private void resetReplay() {
+        Arrays.fill(this.replayDist, Double.POSITIVE_INFINITY);
+        Arrays.fill(this.replayPrev, -1);
+        this.tracePos = 0;
+        this.current = -1;
+        this.path = null;
+    }
+
+    /**
+     * Rejoue les evenements jusqu'a une position (repart du debut pour reculer).
+     * @param position nombre d'evenements rejoues a l'arrivee
+     */
+    private void applyUntil(int position) {
+        if (position < this.tracePos)
+            resetReplay();
+        while (this.tracePos < position) {
+            int v = this.trace.vertex(this.tracePos);
+            if (this.trace.isExpansion(this.tracePos)) {
+                // La trace n'est jamais tronquee : seul le depart est developpe sans avoir ete relaxe
+                if (this.replayDist[v] == Double.POSITIVE_INFINITY)
+                    this.replayDist[v] = 0;
+                this.current = v;
+            } else {
+                this.replayDist[v] = this.trace.dist(this.tracePos);
+                this.replayPrev[v] = this.trace.prev(this.tracePos);
+            }
+            this.tracePos++;
+        }
+    }
+
+    /**
+     * Chemin reconstitue depuis l'arrivee a partir des predecesseurs rejoues.
+     * @return liste des indices des sommets du chemin, ou null si l'arrivee n'a pas ete atteinte
+     */
+    private LinkedList<Integer> replayPath() {
+        if (this.replayDist[this.end] == Double.POSITIVE_INFINITY)
+            return null;
+        LinkedList<Integer> path = new LinkedList<>();
+        for (int v = this.end; v != -1; v = this.replayPrev[v]) {
+            path.addFirst(v);
+        }
+        return path;
+    }
 }
 
 /**
@@ -192,6 +384,10 @@ public class App {
         System.out.println("Options:");
         System.out.println("  -a, --algorithme <algo>    Algorithme a utiliser: dijkstra ou astar (defaut: dijkstra)");
         System.out.println("  -h, --heuristique <heur>   Heuristique pour A*: euclidean, manhattan, chebyshev (defaut: euclidean)");
+        System.out.println("  -r, --rejouer              Recherche a pleine vitesse, puis relecture de la trace");
+        System.out.println("  -v, --vitesse <n>          Vitesse de relecture en evenements/s (defaut: 2000)");
+        System.out.println("  -t, --trace <fichier>      Enregistre la trace de la recherche dans un fichier");
+        System.out.println("      --lire-trace <fichier> Rejoue une trace enregistree au lieu de lancer la recherche");
         System.out.println("      --help                 Affiche cette aide");
         System.out.println();
         System.out.println("Exemples:");
@@ -199,6 +395,8 @@ public class App {
         System.out.println("  java -jar PathFinder.jar -a dijkstra graph.txt");
         System.out.println("  java -jar PathFinder.jar -a astar -h manhattan graph.txt");
         System.out.println("  java -jar PathFinder.jar --algorithme astar --heuristique chebyshev maze.txt");
+        System.out.println("  java -jar PathFinder.jar -r -v 5000 -t trace.bin graph.txt");
+        System.out.println("  java -jar PathFinder.jar --lire-trace trace.bin graph.txt");
     }
 
     /**
@@ -207,12 +405,30 @@ public class App {
      * @param nlines nombre de lignes de la grille
      * @param ncols nombre de colonnes de la grille
      * @param pixelSize taille d'une case en pixels
+     * @param replay vrai pour ajouter les commandes de relecture (pause, curseur et vitesse)
+     * @param speed vitesse initiale de relecture, en evenements par seconde
      */
-    private static void drawBoard(Board board, int nlines, int ncols, int pixelSize) {
+    private static void drawBoard(Board board, int nlines, int ncols, int pixelSize, boolean replay, int speed) {
         JFrame window = new JFrame("Plus court chemin");
         window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        window.setBounds(0, 0, ncols * pixelSize + 20, nlines * pixelSize + 40);
-        window.getContentPane().add(board);
+        window.setBounds(0, 0, ncols * pixelSize + 20, nlines * pixelSize + (replay ? 80 : 40));
+        window.getContentPane().add(board, BorderLayout.CENTER);
+        if (replay) {
+            JPanel controls = new JPanel(new BorderLayout());
+            JButton pause = new JButton("Pause / Lecture");
+            pause.addActionListener(e -> board.togglePause());
+            JSlider scrubber = new JSlider(0, 0, 0);
+            board.setScrubber(scrubber);
+            JPanel speedPanel = new JPanel();
+            JSpinner speedControl = new JSpinner(new SpinnerNumberModel(speed, 1, 1000000, 10));
+            board.setSpeedControl(speedControl);
+            speedPanel.add(new JLabel("Vitesse (evt/s)"));
+            speedPanel.add(speedControl);
+            controls.add(pause, BorderLayout.WEST);
+            controls.add(scrubber, BorderLayout.CENTER);
+            controls.add(speedPanel, BorderLayout.EAST);
+            window.getContentPane().add(controls, BorderLayout.SOUTH);
+        }
         window.setVisible(true);
     }
 
@@ -226,10 +442,11 @@ public class App {
      * @param end indice du sommet d'arrivee
      * @param ncols nombre de colonnes (pour l'affichage)
      * @param numberV nombre total de sommets
-     * @param board composant d'affichage pour la visualisation
+     * @param board composant d'affichage pour la visualisation (null : recherche a pleine vitesse sans affichage)
+     * @param trace trace ou enregistrer les evenements de la recherche (null : pas d'enregistrement)
      * @return liste des indices des sommets du chemin optimal
      */
-    private static LinkedList<Integer> Dijkstra(Graph graph, int start, int end, int ncols, int numberV, Board board) {
+    static LinkedList<Integer> Dijkstra(Graph graph, int start, int end, int ncols, int numberV, Board board, SearchTrace trace) {
         graph.vertexlist.get(start).timeFromSource = 0;
         int number_tries = 0;
 
@@ -248,6 +465,8 @@ public class App {
             }
             visited.add(current.num);
             number_tries++;
+            if (trace != null)
+                trace.expand(current.num);
 
             // Arret si destination atteinte
             if (current.num == end) {
@@ -263,15 +482,19 @@ public class App {
                     neighbor.timeFromSource = newDist;
                     neighbor.prev = current;
                     pq.add(neighbor);
+                    if (trace != null)
+                        trace.relax(neighbor.num, current.num, newDist);
                 }
             }
 
             // Mise a jour de l'affichage
-            try {
-                board.update(graph, current.num);
-                Thread.sleep(1);
-            } catch (InterruptedException e) {
-                System.out.println("stop");
+            if (board != null) {
+                try {
+                    board.update(graph, current.num);
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    System.out.println("stop");
+                }
             }
         }
 
@@ -287,7 +510,8 @@ public class App {
             current = current.prev;
         }
 
-        board.addPath(graph, path);
+        if (board != null)
+            board.addPath(graph, path);
         return path;
     }
 
@@ -301,11 +525,12 @@ public class App {
      * @param end indice du sommet d'arrivee
      * @param ncols nombre de colonnes (pour l'affichage)
      * @param numberV nombre total de sommets
-     * @param board composant d'affichage pour la visualisation
+     * @param board composant d'affichage pour la visualisation (null : recherche a pleine vitesse sans affichage)
      * @param heuristicType type d'heuristique a utiliser
+     * @param trace trace ou enregistrer les evenements de la recherche (null : pas d'enregistrement)
      * @return liste des indices des sommets du chemin trouve
      */
-    private static LinkedList<Integer> AStar(Graph graph, int start, int end, int ncols, int numberV, Board board, Heuristic heuristicType) {
+    private static LinkedList<Integer> AStar(Graph graph, int start, int end, int ncols, int numberV, Board board, Heuristic heuristicType, SearchTrace trace) {
         graph.vertexlist.get(start).timeFromSource = 0;
         int number_tries = 0;
         int endLine = end / ncols;
@@ -346,6 +571,8 @@ public class App {
             }
             visited.add(current.num);
             number_tries++;
+            if (trace != null)
+                trace.expand(current.num);
 
             // Arret si destination atteinte
             if (current.num == end) {
@@ -361,15 +588,19 @@ public class App {
                     neighbor.timeFromSource = newDist;
                     neighbor.prev = current;
                     pq.add(neighbor);
+                    if (trace != null)
+                        trace.relax(neighbor.num, current.num, newDist);
                 }
             }
 
             // Mise a jour de l'affichage
-            try {
-                board.update(graph, current.num);
-                Thread.sleep(1);
-            } catch (InterruptedException e) {
-                System.out.println("stop");
+            if (board != null) {
+                try {
+                    board.update(graph, current.num);
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    System.out.println("stop");
+                }
             }
         }
 
@@ -385,10 +616,192 @@ public class App {
             current = current.prev;
         }
 
-        board.addPath(graph, path);
+        if (board != null)
+            board.addPath(graph, path);
         return path;
     }
 
+    /**
+     * Dijkstra "un vers plusieurs" : une seule exploration depuis le depart
+     * pour plusieurs destinations. La recherche s'arrete des que toutes les
+     * destinations sont fixees, ou des que les k plus proches le sont.
+     * Le graphe est reinitialise au debut, il peut donc etre reutilise
+     * d'une requete a l'autre sans etre recharge.
+     *
+     * @param graph le graphe pondere
+     * @param start indice du sommet de depart
+     * @param ends indices des sommets d'arrivee
+     * @param k nombre de destinations les plus proches a trouver (0 ou moins : toutes)
+     * @param trace trace ou enregistrer les evenements de la recherche (null : pas d'enregistrement)
+     * @return chemins et couts par destination, dans l'ordre croissant des couts
+     *         (les destinations inaccessibles sont absentes)
+     */
+    static LinkedHashMap<Integer, Route> DijkstraMulti(Graph graph, int start, Collection<Integer> ends, int k, SearchTrace trace) {
+        graph.reset();
+        graph.vertexlist.get(start).timeFromSource = 0;
+
+        // Les destinations hors de la composante du depart sont rejetees sans exploration
+        HashSet<Integer> targets = new HashSet<>();
+        for (int end : ends) {
+            if (graph.components == null || graph.components.connected(start, end))
+                targets.add(end);
+        }
+        int wanted = (k > 0) ? Math.min(k, targets.size()) : targets.size();
+        LinkedHashMap<Integer, Route> routes = new LinkedHashMap<>();
+
+        // File de priorite triee par timeFromSource
+        PriorityQueue<Vertex> pq = new PriorityQueue<>(
+            Comparator.comparingDouble(v -> v.timeFromSource)
+        );
+        HashSet<Integer> visited = new HashSet<>();
+        pq.add(graph.vertexlist.get(start));
+
+        while (!pq.isEmpty() && routes.size() < wanted) {
+            Vertex current = pq.poll();
+
+            if (visited.contains(current.num)) {
+                continue;
+            }
+            visited.add(current.num);
+            if (trace != null)
+                trace.expand(current.num);
+
+            // Destination fixee : sa distance est definitive
+            if (targets.contains(current.num)) {
+                routes.put(current.num, new Route(null, current.timeFromSource));
+            }
+
+            // Relaxation des voisins
+            for (Edge edge : current.adjacencylist) {
+                Vertex neighbor = graph.vertexlist.get(edge.destination);
+                double newDist = current.timeFromSource + edge.weight;
+
+                if (newDist < neighbor.timeFromSource) {
+                    neighbor.timeFromSource = newDist;
+                    neighbor.prev = current;
+                    pq.add(neighbor);
+                    if (trace != null)
+                        trace.relax(neighbor.num, current.num, newDist);
+                }
+            }
+        }
+
+        // Reconstruction des chemins (les predecesseurs des sommets fixes ne changent plus)
+        for (Map.Entry<Integer, Route> entry : routes.entrySet()) {
+            LinkedList<Integer> path = new LinkedList<>();
+            Vertex current = graph.vertexlist.get(entry.getKey());
+            while (current != null) {
+                path.addFirst(current.num);
+                current = current.prev;
+            }
+            entry.getValue().path = path;
+        }
+
+        return routes;
+    }
+
+    /**
+     * Carte chargee depuis un fichier : graphe pondere, dimensions,
+     * couleurs des terrains et sommets de depart et d'arrivee.
+     */
+    static class MapData {
+        Graph graph;
+        int[] costs;
+        int nlines;
+        int ncols;
+        HashMap<Integer, String> groundColor;
+        int start;
+        int end;
+    }
+
+    /**
+     * Resultat d'une recherche vers une destination : chemin et cout total.
+     */
+    static class Route {
+        /** Indices des sommets du chemin, du depart a l'arrivee */
+        LinkedList<Integer> path;
+        /** Cout total du chemin */
+        double cost;
+
+        Route(LinkedList<Integer> path, double cost) {
+            this.path = path;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * Charge une carte et construit le graphe pondere (8 voisins) avec {@link GraphBuilder}.
+     * @param filename chemin du fichier carte
+     * @return la carte chargee
+     * @throws FileNotFoundException si le fichier n'existe pas
+     */
+    static MapData loadMap(String filename) throws FileNotFoundException {
+        File myObj = new File(filename);
+        Scanner myReader = new Scanner(myObj);
+        String data = "";
+        
+        // On ignore les deux premieres lignes
+        for (int i = 0; i < 3; i++)
+            data = myReader.nextLine();
+
+        // Lecture du nombre de lignes
+        int nlines = Integer.parseInt(data.split("=")[1]);
+        // Et du nombre de colonnes
+        data = myReader.nextLine();
+        int ncols = Integer.parseInt(data.split("=")[1]);
+
+        HashMap<String, Integer> groundTypes = new HashMap<>();
+        HashMap<Integer, String> groundColor = new HashMap<>();
+        data = myReader.nextLine();
+        data = myReader.nextLine();
+        
+        // Lire les differents types de cases
+        while (!data.equals("==Graph==")) {
+            String name = data.split("=")[0];
+            int time = Integer.parseInt(data.split("=")[1]);
+            data = myReader.nextLine();
+            String color = data;
+            groundTypes.put(name, time);
+            groundColor.put(time, color);
+            data = myReader.nextLine();
+        }
+
+        // Cout de chaque case (un cout negatif designe un terrain infranchissable)
+        int[] costs = new int[nlines * ncols];
+        boolean[] passable = new boolean[nlines * ncols];
+        for (int line = 0; line < nlines; line++) {
+            data = myReader.nextLine();
+            for (int col = 0; col < ncols; col++) {
+                int time = groundTypes.get(String.valueOf(data.charAt(col)));
+                costs[line * ncols + col] = time;
+                passable[line * ncols + col] = time >= 0;
+            }
+        }
+
+        // Construction du graphe et etiquetage des composantes connexes
+        Graph graph = GraphBuilder.build(costs, nlines, ncols);
+        graph.components = new Components(passable, nlines, ncols);
+
+        // On obtient les noeuds de depart et d'arrivee
+        data = myReader.nextLine();
+        data = myReader.nextLine();
+        int startV = Integer.parseInt(data.split("=")[1].split(",")[0]) * ncols + Integer.parseInt(data.split("=")[1].split(",")[1]);
+        data = myReader.nextLine();
+        int endV = Integer.parseInt(data.split("=")[1].split(",")[0]) * ncols + Integer.parseInt(data.split("=")[1].split(",")[1]);
+
+        myReader.close();
+
+        MapData map = new MapData();
+        map.graph = graph;
+        map.costs = costs;
+        map.nlines = nlines;
+        map.ncols = ncols;
+        map.groundColor = groundColor;
+        map.start = startV;
+        map.end = endV;
+        return map;
+    }
+
     /**
      * Point d'entree du programme.
      * Parse les arguments, charge la carte, execute l'algorithme choisi
@@ -397,6 +810,10 @@ public class App {
      * @param args arguments de la ligne de commande
      *             -a/--algorithme : dijkstra ou astar
      *             -h/--heuristique : euclidean, manhattan ou chebyshev
+     *             -r/--rejouer : recherche sans affichage puis relecture de la trace
+     *             -v/--vitesse : vitesse de relecture
+     *             -t/--trace : fichier ou enregistrer la trace
+     *             --lire-trace : fichier de trace a rejouer
      *             --help : affiche l'aide
      *             dernier argument : chemin du fichier carte
      */
@@ -405,6 +822,10 @@ public class App {
         String filename = null;
         String algorithme = "dijkstra";
         Heuristic heuristic = Heuristic.EUCLIDEAN;
+        boolean rejouer = false;
+        int vitesse = 2000;
+        String traceFile = null;
+        String readTraceFile = null;
 
         // Parsing des arguments
         for (int i = 0; i < args.length; i++) {
@@ -448,6 +869,34 @@ public class App {
                         printHelp();
                         System.exit(1);
                 }
+            } else if (arg.equals("-r") || arg.equals("--rejouer")) {
+                rejouer = true;
+            } else if (arg.equals("-v") || arg.equals("--vitesse")) {
+                if (i + 1 >= args.length) {
+                    System.err.println("Erreur: l'option " + arg + " necessite une valeur.");
+                    printHelp();
+                    System.exit(1);
+                }
+                try {
+                    vitesse = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    vitesse = 0;
+                }
+                if (vitesse <= 0) {
+                    System.err.println("Erreur: vitesse invalide '" + args[i] + "'. Valeur attendue: entier positif");
+                    printHelp();
+                    System.exit(1);
+                }
+            } else if (arg.equals("-t") || arg.equals("--trace") || arg.equals("--lire-trace")) {
+                if (i + 1 >= args.length) {
+                    System.err.println("Erreur: l'option " + arg + " necessite une valeur.");
+                    printHelp();
+                    System.exit(1);
+                }
+                if (arg.equals("--lire-trace"))
+                    readTraceFile = args[++i];
+                else
+                    traceFile = args[++i];
             } else if (arg.startsWith("-")) {
                 System.err.println("Erreur: option inconnue '" + arg + "'");
                 printHelp();
@@ -470,122 +919,59 @@ public class App {
 
         // Lecture de la carte et creation du graphe 
         try {
-            File myObj = new File(filename);
-            if (!myObj.exists()) {
+            if (!new File(filename).exists()) {
                 System.err.println("Erreur: fichier non trouve '" + filename + "'");
                 System.exit(1);
             }
-            Scanner myReader = new Scanner(myObj);
-            String data = "";
-            
-            // On ignore les deux premieres lignes
-            for (int i = 0; i < 3; i++)
-                data = myReader.nextLine();
-
-            // Lecture du nombre de lignes
-            int nlines = Integer.parseInt(data.split("=")[1]);
-            // Et du nombre de colonnes
-            data = myReader.nextLine();
-            int ncols = Integer.parseInt(data.split("=")[1]);
+            MapData map = loadMap(filename);
+            Graph graph = map.graph;
+            int nlines = map.nlines;
+            int ncols = map.ncols;
+            int startV = map.start;
+            int endV = map.end;
 
-            // Initialisation du graphe
-            Graph graph = new Graph();
-
-            HashMap<String, Integer> groundTypes = new HashMap<>();
-            HashMap<Integer, String> groundColor = new HashMap<>();
-            data = myReader.nextLine();
-            data = myReader.nextLine();
-            
-            // Lire les differents types de cases
-            while (!data.equals("==Graph==")) {
-                String name = data.split("=")[0];
-                int time = Integer.parseInt(data.split("=")[1]);
-                data = myReader.nextLine();
-                String color = data;
-                groundTypes.put(name, time);
-                groundColor.put(time, color);
-                data = myReader.nextLine();
+            // Rejet immediat si l'arrivee n'est pas accessible depuis le depart
+            if (!graph.components.connected(startV, endV)) {
+                System.err.println("Erreur: aucun chemin entre le depart et l'arrivee.");
+                System.exit(1);
             }
 
-            // On ajoute les sommets dans le graphe (avec le bon type)
-            for (int line = 0; line < nlines; line++) {
-                data = myReader.nextLine();
-                for (int col = 0; col < ncols; col++) {
-                    graph.addVertex(groundTypes.get(String.valueOf(data.charAt(col))));
+            // Relecture d'une trace enregistree : pas de recherche
+            if (readTraceFile != null) {
+                SearchTrace trace = null;
+                try {
+                    trace = SearchTrace.load(readTraceFile);
+                } catch (IOException e) {
+                    System.err.println("Erreur: impossible de lire la trace '" + readTraceFile + "' (" + e.getMessage() + ")");
+                    System.exit(1);
                 }
-            }
-
-            // Ajout des aretes (8 voisins)
-            for (int line = 0; line < nlines; line++) {
-                for (int col = 0; col < ncols; col++) {
-                    int source = line * ncols + col;
-                    int dest;
-                    double weight;
-
-                    // Voisin haut-gauche (diagonale)
-                    if (line > 0 && col > 0) {
-                        dest = (line - 1) * ncols + col - 1;
-                        weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0 * Math.sqrt(2);
-                        graph.addEgde(source, dest, weight);
-                    }
-                    // Voisin haut
-                    if (line > 0) {
-                        dest = (line - 1) * ncols + col;
-                        weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0;
-                        graph.addEgde(source, dest, weight);
-                    }
-                    // Voisin haut-droite (diagonale)
-                    if (line > 0 && col < ncols - 1) {
-                        dest = (line - 1) * ncols + col + 1;
-                        weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0 * Math.sqrt(2);
-                        graph.addEgde(source, dest, weight);
-                    }
-                    // Voisin gauche
-                    if (col > 0) {
-                        dest = line * ncols + col - 1;
-                        weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0;
-                        graph.addEgde(source, dest, weight);
-                    }
-                    // Voisin droite
-                    if (col < ncols - 1) {
-                        dest = line * ncols + col + 1;
-                        weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0;
-                        graph.addEgde(source, dest, weight);
-                    }
-                    // Voisin bas-gauche (diagonale)
-                    if (line < nlines - 1 && col > 0) {
-                        dest = (line + 1) * ncols + col - 1;
-                        weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0 * Math.sqrt(2);
-                        graph.addEgde(source, dest, weight);
-                    }
-                    // Voisin bas
-                    if (line < nlines - 1) {
-                        dest = (line + 1) * ncols + col;
-                        weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0;
-                        graph.addEgde(source, dest, weight);
-                    }
-                    // Voisin bas-droite (diagonale)
-                    if (line < nlines - 1 && col < ncols - 1) {
-                        dest = (line + 1) * ncols + col + 1;
-                        weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0 * Math.sqrt(2);
-                        graph.addEgde(source, dest, weight);
-                    }
+                if (trace.nlines != nlines || trace.ncols != ncols) {
+                    System.err.println("Erreur: la trace '" + readTraceFile + "' a ete enregistree sur une carte " + trace.nlines + "x" + trace.ncols + ", la carte chargee est " + nlines + "x" + ncols + ".");
+                    System.exit(1);
+                }
+                if (trace.start != startV || trace.end != endV) {
+                    System.err.println("Erreur: la trace '" + readTraceFile + "' ne correspond pas aux depart et arrivee de la carte chargee.");
+                    System.exit(1);
                 }
+                SearchTrace loaded = trace;
+                int pixelSize = 10;
+                Board board = new Board(graph, pixelSize, ncols, nlines, map.groundColor, startV, endV);
+                drawBoard(board, nlines, ncols, pixelSize, true, vitesse);
+                int speed = vitesse;
+                SwingUtilities.invokeLater(() -> board.replay(loaded, speed));
+                return;
             }
 
-            // On obtient les noeuds de depart et d'arrivee
-            data = myReader.nextLine();
-            data = myReader.nextLine();
-            int startV = Integer.parseInt(data.split("=")[1].split(",")[0]) * ncols + Integer.parseInt(data.split("=")[1].split(",")[1]);
-            data = myReader.nextLine();
-            int endV = Integer.parseInt(data.split("=")[1].split(",")[0]) * ncols + Integer.parseInt(data.split("=")[1].split(",")[1]);
-
-            myReader.close();
+            // Avec enregistrement, la recherche tourne a pleine vitesse sans affichage direct
+            SearchTrace trace = null;
+            if (rejouer || traceFile != null)
+                trace = new SearchTrace(nlines, ncols, startV, endV);
 
             int pixelSize = 10;
-            Board board = new Board(graph, pixelSize, ncols, nlines, groundColor, startV, endV);
-            drawBoard(board, nlines, ncols, pixelSize);
+            Board board = new Board(graph, pixelSize, ncols, nlines, map.groundColor, startV, endV);
+            drawBoard(board, nlines, ncols, pixelSize, rejouer, vitesse);
             board.repaint();
+            Board liveBoard = (trace == null) ? board : null;
 
             try {
                 Thread.sleep(100);
@@ -596,9 +982,22 @@ public class App {
             // Appel de l'algorithme choisi
             LinkedList<Integer> path;
             if (algorithme.equals("astar")) {
-                path = AStar(graph, startV, endV, ncols, nlines * ncols, board, heuristic);
+                path = AStar(graph, startV, endV, ncols, nlines * ncols, liveBoard, heuristic, trace);
             } else {
-                path = Dijkstra(graph, startV, endV, ncols, nlines * ncols, board);
+                path = Dijkstra(graph, startV, endV, ncols, nlines * ncols, liveBoard, trace);
+            }
+
+            // Sauvegarde et relecture de la trace
+            if (trace != null) {
+                if (traceFile != null)
+                    trace.save(traceFile);
+                SearchTrace recorded = trace;
+                LinkedList<Integer> found = path;
+                int speed = vitesse;
+                if (rejouer)
+                    SwingUtilities.invokeLater(() -> board.replay(recorded, speed));
+                else
+                    SwingUtilities.invokeLater(() -> board.addPath(graph, found));
             }
 
             // Ecriture du chemin dans un fichier de sortie
@@ -0,0 +1,234 @@
+package up.MainApp;
+
+import up.MainApp.App.MapData;
+import up.MainApp.App.Route;
+import up.MainApp.WeightedGraph.Graph;
+import up.MainApp.WeightedGraph.Edge;
+
+import java.io.FileNotFoundException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Random;
+
+/**
+ * Banc d'essai sans affichage.
+ * Compare la construction parallele du graphe a la construction sequentielle,
+ * puis une recherche Dijkstra "un vers plusieurs" (avec et sans enregistrement
+ * de la trace) a une suite d'appels a {@link App#Dijkstra}, un par destination,
+ * le graphe etant reinitialise ou reconstruit entre deux appels.
+ */
+public class Benchmark {
+    /** Sortie standard d'origine (App.Dijkstra affiche son resultat, masque pendant les mesures) */
+    private static final PrintStream STDOUT = System.out;
+    /** Sortie qui ignore tout ce qui est ecrit */
+    private static final PrintStream SILENT = new PrintStream(new OutputStream() {
+        public void write(int b) {
+        }
+    });
+
+    /**
+     * Affiche l'aide du banc d'essai.
+     */
+    public static void printHelp() {
+        System.out.println("Usage: java -cp bin up.MainApp.Benchmark <fichier_carte> [nb_destinations] [repetitions]");
+        System.out.println();
+        System.out.println("  nb_destinations   Nombre de destinations tirees au hasard (defaut: 32)");
+        System.out.println("  repetitions       Nombre de mesures par methode (defaut: 20)");
+    }
+
+    /**
+     * Lit un argument entier strictement positif ; quitte avec un message d'erreur sinon.
+     * @param value valeur de l'argument
+     * @param name nom de l'argument pour le message d'erreur
+     * @return la valeur lue
+     */
+    private static int parsePositive(String value, String name) {
+        int n;
+        try {
+            n = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            n = 0;
+        }
+        if (n <= 0) {
+            System.err.println("Erreur: " + name + " invalide '" + value + "'. Valeur attendue: entier positif");
+            printHelp();
+            System.exit(1);
+        }
+        return n;
+    }
+
+    /**
+     * Verifie que deux graphes ont exactement les memes sommets et aretes (ordre et poids compris).
+     * @param a premier graphe
+     * @param b second graphe
+     * @return vrai si les graphes sont identiques
+     */
+    private static boolean sameGraph(Graph a, Graph b) {
+        if (a.num_v != b.num_v)
+            return false;
+        for (int v = 0; v < a.num_v; v++) {
+            if (a.vertexlist.get(v).indivTime != b.vertexlist.get(v).indivTime)
+                return false;
+            if (a.vertexlist.get(v).adjacencylist.size() != b.vertexlist.get(v).adjacencylist.size())
+                return false;
+            Iterator<Edge> itA = a.vertexlist.get(v).adjacencylist.iterator();
+            Iterator<Edge> itB = b.vertexlist.get(v).adjacencylist.iterator();
+            while (itA.hasNext()) {
+                Edge ea = itA.next();
+                Edge eb = itB.next();
+                if (ea.source != eb.source || ea.destination != eb.destination || ea.weight != eb.weight)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mesure le temps moyen de construction du graphe.
+     * @param map la carte chargee
+     * @param parallel vrai pour la construction parallele
+     * @param runs nombre de repetitions
+     * @return temps moyen en millisecondes
+     */
+    private static double timeBuild(MapData map, boolean parallel, int runs) {
+        long begin = System.nanoTime();
+        for (int r = 0; r < runs; r++) {
+            if (parallel)
+                GraphBuilder.build(map.costs, map.nlines, map.ncols);
+            else
+                GraphBuilder.buildSequential(map.costs, map.nlines, map.ncols);
+        }
+        return (System.nanoTime() - begin) / 1e6 / runs;
+    }
+
+    /**
+     * Mesure le temps moyen d'une recherche "un vers plusieurs".
+     * @param map la carte chargee
+     * @param targets destinations
+     * @param runs nombre de repetitions
+     * @param trace trace a remplir pendant la recherche (null : pas d'enregistrement)
+     * @return temps moyen en millisecondes
+     */
+    private static double timeMulti(MapData map, ArrayList<Integer> targets, int runs, SearchTrace trace) {
+        long begin = System.nanoTime();
+        for (int r = 0; r < runs; r++) {
+            if (trace != null)
+                trace.clear();
+            App.DijkstraMulti(map.graph, map.start, targets, 0, trace);
+        }
+        return (System.nanoTime() - begin) / 1e6 / runs;
+    }
+
+    /**
+     * Mesure le temps moyen d'une suite d'appels a {@link App#Dijkstra}, un par destination.
+     * @param map la carte chargee
+     * @param targets destinations
+     * @param runs nombre de repetitions
+     * @param rebuild vrai pour reconstruire le graphe avant chaque appel,
+     *                faux pour seulement le reinitialiser
+     * @return temps moyen en millisecondes
+     */
+    private static double timeRepeated(MapData map, ArrayList<Integer> targets, int runs, boolean rebuild) {
+        int numberV = map.nlines * map.ncols;
+        System.setOut(SILENT);
+        long begin = System.nanoTime();
+        for (int r = 0; r < runs; r++) {
+            for (int target : targets) {
+                Graph graph = map.graph;
+                if (rebuild)
+                    graph = GraphBuilder.build(map.costs, map.nlines, map.ncols);
+                else
+                    graph.reset();
+                App.Dijkstra(graph, map.start, target, map.ncols, numberV, null, null);
+            }
+        }
+        double elapsed = (System.nanoTime() - begin) / 1e6 / runs;
+        System.setOut(STDOUT);
+        return elapsed;
+    }
+
+    /**
+     * Point d'entree du banc d'essai.
+     * @param args fichier carte, nombre de destinations, nombre de repetitions
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args[0].equals("--help")) {
+            printHelp();
+            return;
+        }
+        int nbTargets = (args.length > 1) ? parsePositive(args[1], "nombre de destinations") : 32;
+        int runs = (args.length > 2) ? parsePositive(args[2], "nombre de repetitions") : 20;
+
+        MapData map;
+        try {
+            map = App.loadMap(args[0]);
+        } catch (FileNotFoundException e) {
+            System.err.println("Erreur: fichier non trouve '" + args[0] + "'");
+            System.exit(1);
+            return;
+        }
+
+        // Construction du graphe : verification puis mesures
+        if (!sameGraph(GraphBuilder.build(map.costs, map.nlines, map.ncols), GraphBuilder.buildSequential(map.costs, map.nlines, map.ncols))) {
+            System.err.println("Erreur: les constructions parallele et sequentielle different");
+            System.exit(1);
+        }
+        timeBuild(map, false, runs);
+        timeBuild(map, true, runs);
+        double sequential = timeBuild(map, false, runs);
+        double parallel = timeBuild(map, true, runs);
+        System.out.println("Carte " + args[0] + " (" + map.nlines + "x" + map.ncols + "), " + runs + " repetitions:");
+        System.out.printf("    Construction sequentielle  : %.3f ms%n", sequential);
+        System.out.printf("    Construction parallele     : %.3f ms%n", parallel);
+        System.out.printf("    Acceleration               : x%.2f%n", sequential / parallel);
+
+        // Destinations tirees au hasard (graine fixe pour des mesures reproductibles)
+        int numberV = map.nlines * map.ncols;
+        Random random = new Random(42);
+        ArrayList<Integer> targets = new ArrayList<>();
+        while (targets.size() < Math.min(nbTargets, numberV - 1)) {
+            int v = random.nextInt(numberV);
+            if (v != map.start && !targets.contains(v)) {
+                targets.add(v);
+            }
+        }
+
+        // Verification : chaque chemin et chaque cout sont ceux de App.Dijkstra
+        LinkedHashMap<Integer, Route> routes = App.DijkstraMulti(map.graph, map.start, targets, 0, null);
+        for (int target : targets) {
+            map.graph.reset();
+            System.setOut(SILENT);
+            LinkedList<Integer> path = App.Dijkstra(map.graph, map.start, target, map.ncols, numberV, null, null);
+            System.setOut(STDOUT);
+            double cost = map.graph.vertexlist.get(target).timeFromSource;
+            Route multi = routes.get(target);
+            boolean same = (cost == Double.POSITIVE_INFINITY) ? multi == null
+                    : multi != null && multi.cost == cost && multi.path.equals(path);
+            if (!same) {
+                System.err.println("Erreur: resultat different de Dijkstra pour la destination " + target);
+                System.exit(1);
+            }
+        }
+
+        // Echauffement de la JVM
+        SearchTrace trace = new SearchTrace(map.nlines, map.ncols, map.start, -1);
+        timeMulti(map, targets, runs, null);
+        timeMulti(map, targets, runs, trace);
+        timeRepeated(map, targets, runs, false);
+        timeRepeated(map, targets, runs, true);
+
+        double multi = timeMulti(map, targets, runs, null);
+        double traced = timeMulti(map, targets, runs, trace);
+        double repeated = timeRepeated(map, targets, runs, false);
+        double reloaded = timeRepeated(map, targets, runs, true);
+        System.out.println("Recherche vers " + targets.size() + " destinations:");
+        System.out.printf("    Dijkstra un vers plusieurs : %.3f ms%n", multi);
+        System.out.printf("    Avec enregistrement trace  : %.3f ms%n", traced);
+        System.out.printf("    Dijkstra repete (reset)    : %.3f ms (x%.2f)%n", repeated, repeated / multi);
+        System.out.printf("    Dijkstra repete (graphe reconstruit) : %.3f ms (x%.2f)%n", reloaded, reloaded / multi);
+    }
+}
@@ -0,0 +1,174 @@
+package up.MainApp;
+
+import java.util.stream.IntStream;
+
+/**
+ * Etiquetage des composantes connexes de la grille (8 voisins).
+ * Les cases infranchissables n'appartiennent a aucune composante.
+ * Permet de rejeter en temps constant une requete entre deux cases
+ * qui ne sont pas reliees, avant de lancer Dijkstra ou A*.
+ */
+public class Components {
+    /** Nombre de lignes de la grille */
+    int nlines;
+    /** Nombre de colonnes de la grille */
+    int ncols;
+    /** Cases franchissables */
+    boolean[] passable;
+    /** Union-find : parent de chaque case (-1 si infranchissable), la racine sert d'etiquette */
+    int[] parent;
+    /** Vrai si une case a ete fermee depuis le dernier etiquetage */
+    boolean dirty;
+
+    /**
+     * Constructeur : etiquette toute la grille.
+     * @param passable cases franchissables (indice = ligne * ncols + colonne)
+     * @param nlines nombre de lignes de la grille
+     * @param ncols nombre de colonnes de la grille
+     */
+    public Components(boolean[] passable, int nlines, int ncols) {
+        this.nlines = nlines;
+        this.ncols = ncols;
+        this.passable = passable;
+        this.parent = new int[nlines * ncols];
+        build();
+    }
+
+    /**
+     * Etiquette toute la grille.
+     * Chaque bande de lignes est traitee en parallele avec son propre union-find
+     * (les unions restent internes a la bande), puis les frontieres entre
+     * bandes sont fusionnees et les etiquettes aplaties.
+     */
+    void build() {
+        int strips = Math.max(1, Math.min(nlines, Runtime.getRuntime().availableProcessors()));
+        int stripHeight = (nlines + strips - 1) / strips;
+
+        // Etiquetage local de chaque bande, en parallele
+        IntStream.range(0, strips).parallel().forEach(s -> {
+            int first = s * stripHeight;
+            int last = Math.min(nlines, first + stripHeight);
+            for (int line = first; line < last; line++) {
+                for (int col = 0; col < ncols; col++) {
+                    int v = line * ncols + col;
+                    parent[v] = passable[v] ? v : -1;
+                    if (!passable[v])
+                        continue;
+                    // Voisins deja traites : gauche, haut-gauche, haut, haut-droite
+                    if (col > 0)
+                        unionIfPassable(v, v - 1);
+                    if (line > first) {
+                        if (col > 0)
+                            unionIfPassable(v, v - ncols - 1);
+                        unionIfPassable(v, v - ncols);
+                        if (col < ncols - 1)
+                            unionIfPassable(v, v - ncols + 1);
+                    }
+                }
+            }
+        });
+
+        // Fusion des frontieres entre bandes
+        for (int s = 1; s < strips; s++) {
+            int line = s * stripHeight;
+            if (line >= nlines)
+                break;
+            for (int col = 0; col < ncols; col++) {
+                int v = line * ncols + col;
+                if (!passable[v])
+                    continue;
+                if (col > 0)
+                    unionIfPassable(v, v - ncols - 1);
+                unionIfPassable(v, v - ncols);
+                if (col < ncols - 1)
+                    unionIfPassable(v, v - ncols + 1);
+            }
+        }
+
+        // Aplatissement : le parent d'une case a toujours un indice inferieur,
+        // un seul passage dans l'ordre croissant suffit
+        for (int v = 0; v < parent.length; v++) {
+            if (parent[v] >= 0)
+                parent[v] = parent[parent[v]];
+        }
+        dirty = false;
+    }
+
+    /**
+     * Racine de la composante d'une case franchissable (avec compression de chemin).
+     * @param v indice de la case
+     * @return etiquette de la composante
+     */
+    int find(int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Reunit les composantes de deux cases si la seconde est franchissable.
+     * La plus petite racine devient le parent de l'autre.
+     * @param a case franchissable
+     * @param b case voisine
+     */
+    private void unionIfPassable(int a, int b) {
+        if (!passable[b])
+            return;
+        int ra = find(a);
+        int rb = find(b);
+        if (ra < rb)
+            parent[rb] = ra;
+        else if (rb < ra)
+            parent[ra] = rb;
+    }
+
+    /**
+     * Indique si deux cases sont dans la meme composante.
+     * @param a premiere case
+     * @param b seconde case
+     * @return vrai s'il existe un chemin entre a et b
+     */
+    public boolean connected(int a, int b) {
+        if (dirty)
+            build();
+        if (!passable[a] || !passable[b])
+            return false;
+        return find(a) == find(b);
+    }
+
+    /**
+     * Change le caractere franchissable d'une case et tient les etiquettes a jour.
+     * Ouvrir une case fusionne les composantes voisines immediatement ;
+     * fermer une case peut scinder une composante, l'etiquetage complet
+     * est alors refait a la prochaine requete.
+     * Appelee uniquement par {@link GraphBuilder#setCost}, qui met aussi le graphe a jour.
+     * @param v indice de la case
+     * @param open vrai si la case devient franchissable
+     */
+    void setPassable(int v, boolean open) {
+        if (passable[v] == open)
+            return;
+        passable[v] = open;
+        if (!open) {
+            parent[v] = -1;
+            dirty = true;
+            return;
+        }
+        if (dirty)
+            return;
+
+        parent[v] = v;
+        int line = v / ncols;
+        int col = v % ncols;
+        for (int dl = -1; dl <= 1; dl++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                int l = line + dl;
+                int c = col + dc;
+                if ((dl != 0 || dc != 0) && l >= 0 && l < nlines && c >= 0 && c < ncols)
+                    unionIfPassable(v, l * ncols + c);
+            }
+        }
+    }
+}
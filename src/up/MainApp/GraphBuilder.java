@@ -0,0 +1,269 @@
+package up.MainApp;
+
+import up.MainApp.WeightedGraph.Graph;
+import up.MainApp.WeightedGraph.Vertex;
+import up.MainApp.WeightedGraph.Edge;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Construction du graphe pondere (8 voisins) a partir de la grille des couts de terrain.
+ * Un cout negatif designe une case infranchissable : aucune arete n'y entre ni n'en sort.
+ */
+public class GraphBuilder {
+    /** Facteur des deplacements en diagonale */
+    static final double SQRT2 = Math.sqrt(2);
+
+    /**
+     * Poids d'une arete : moyenne des couts des deux cases, multipliee par racine de 2 en diagonale.
+     * Seul calcul de poids utilise par {@link #build} (pour remplir sa table) et par {@link #setCost}.
+     * @param sourceTime cout de la case source
+     * @param destTime cout de la case destination
+     * @param diagonal vrai pour un deplacement en diagonale
+     * @return poids de l'arete
+     */
+    static double weight(double sourceTime, double destTime, boolean diagonal) {
+        double w = (sourceTime + destTime) / 2.0;
+        return diagonal ? w * SQRT2 : w;
+    }
+
+    /**
+     * Construit le graphe en parallele, par bandes de lignes.
+     * Chaque bande ne remplit que les listes d'adjacence de ses propres sommets,
+     * il n'y a donc aucune contention. Les poids sont lus dans une table
+     * precalculee par paire de types de terrain. Le resultat (aretes, ordre et
+     * poids) est identique a celui de {@link #buildSequential}.
+     *
+     * @param costs cout de chaque case (indice = ligne * ncols + colonne)
+     * @param nlines nombre de lignes de la grille
+     * @param ncols nombre de colonnes de la grille
+     * @return le graphe construit
+     */
+    public static Graph build(int[] costs, int nlines, int ncols) {
+        Graph graph = new Graph();
+        graph.vertexlist.ensureCapacity(costs.length);
+        for (int cost : costs) {
+            graph.addVertex(cost);
+        }
+        Vertex[] vertices = graph.vertexlist.toArray(new Vertex[0]);
+
+        // Numerotation des types de terrain presents sur la carte
+        HashMap<Integer, Integer> typeIndex = new HashMap<>();
+        int[] types = new int[costs.length];
+        for (int v = 0; v < costs.length; v++) {
+            Integer t = typeIndex.get(costs[v]);
+            if (t == null) {
+                t = typeIndex.size();
+                typeIndex.put(costs[v], t);
+            }
+            types[v] = t;
+        }
+
+        // Table des poids par paire de types
+        int ntypes = typeIndex.size();
+        double[] typeCost = new double[ntypes];
+        for (Map.Entry<Integer, Integer> entry : typeIndex.entrySet()) {
+            typeCost[entry.getValue()] = entry.getKey();
+        }
+        double[][] straight = new double[ntypes][ntypes];
+        double[][] diagonal = new double[ntypes][ntypes];
+        for (int a = 0; a < ntypes; a++) {
+            for (int b = 0; b < ntypes; b++) {
+                straight[a][b] = weight(typeCost[a], typeCost[b], false);
+                diagonal[a][b] = weight(typeCost[a], typeCost[b], true);
+            }
+        }
+
+        int strips = Math.max(1, Math.min(nlines, Runtime.getRuntime().availableProcessors()));
+        int stripHeight = (nlines + strips - 1) / strips;
+
+        IntStream.range(0, strips).parallel().forEach(s -> {
+            int first = s * stripHeight;
+            int last = Math.min(nlines, first + stripHeight);
+            for (int line = first; line < last; line++) {
+                for (int col = 0; col < ncols; col++) {
+                    int source = line * ncols + col;
+                    if (costs[source] < 0)
+                        continue;
+                    Vertex vertex = vertices[source];
+                    double[] straightRow = straight[types[source]];
+                    double[] diagonalRow = diagonal[types[source]];
+
+                    // Meme ordre d'insertion que la version sequentielle
+                    if (line > 0 && col > 0)
+                        addEdge(vertex, costs, source - ncols - 1, diagonalRow, types);
+                    if (line > 0)
+                        addEdge(vertex, costs, source - ncols, straightRow, types);
+                    if (line > 0 && col < ncols - 1)
+                        addEdge(vertex, costs, source - ncols + 1, diagonalRow, types);
+                    if (col > 0)
+                        addEdge(vertex, costs, source - 1, straightRow, types);
+                    if (col < ncols - 1)
+                        addEdge(vertex, costs, source + 1, straightRow, types);
+                    if (line < nlines - 1 && col > 0)
+                        addEdge(vertex, costs, source + ncols - 1, diagonalRow, types);
+                    if (line < nlines - 1)
+                        addEdge(vertex, costs, source + ncols, straightRow, types);
+                    if (line < nlines - 1 && col < ncols - 1)
+                        addEdge(vertex, costs, source + ncols + 1, diagonalRow, types);
+                }
+            }
+        });
+
+        return graph;
+    }
+
+    /**
+     * Ajoute une arete vers une case voisine si elle est franchissable.
+     * @param vertex sommet source
+     * @param costs cout de chaque case
+     * @param dest case voisine
+     * @param weights ligne de la table des poids pour le type de la source
+     * @param types type de terrain de chaque case
+     */
+    private static void addEdge(Vertex vertex, int[] costs, int dest, double[] weights, int[] types) {
+        if (costs[dest] < 0)
+            return;
+        vertex.adjacencylist.addFirst(new Edge(vertex.num, dest, weights[types[dest]]));
+    }
+
+    /**
+     * Construit le graphe sequentiellement, case par case.
+     * Version de reference pour verifier et mesurer {@link #build} : elle garde
+     * volontairement le calcul d'origine, independant de {@link #weight}.
+     *
+     * @param costs cout de chaque case (indice = ligne * ncols + colonne)
+     * @param nlines nombre de lignes de la grille
+     * @param ncols nombre de colonnes de la grille
+     * @return le graphe construit
+     */
+    public static Graph buildSequential(int[] costs, int nlines, int ncols) {
+        Graph graph = new Graph();
+        for (int cost : costs) {
+            graph.addVertex(cost);
+        }
+
+        // Ajout des aretes (8 voisins), aucune arete vers ou depuis une case infranchissable
+        for (int line = 0; line < nlines; line++) {
+            for (int col = 0; col < ncols; col++) {
+                int source = line * ncols + col;
+                int dest;
+                double weight;
+
+                if (costs[source] < 0)
+                    continue;
+
+                // Voisin haut-gauche (diagonale)
+                if (line > 0 && col > 0 && costs[source - ncols - 1] >= 0) {
+                    dest = (line - 1) * ncols + col - 1;
+                    weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0 * Math.sqrt(2);
+                    graph.addEgde(source, dest, weight);
+                }
+                // Voisin haut
+                if (line > 0 && costs[source - ncols] >= 0) {
+                    dest = (line - 1) * ncols + col;
+                    weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0;
+                    graph.addEgde(source, dest, weight);
+                }
+                // Voisin haut-droite (diagonale)
+                if (line > 0 && col < ncols - 1 && costs[source - ncols + 1] >= 0) {
+                    dest = (line - 1) * ncols + col + 1;
+                    weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0 * Math.sqrt(2);
+                    graph.addEgde(source, dest, weight);
+                }
+                // Voisin gauche
+                if (col > 0 && costs[source - 1] >= 0) {
+                    dest = line * ncols + col - 1;
+                    weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0;
+                    graph.addEgde(source, dest, weight);
+                }
+                // Voisin droite
+                if (col < ncols - 1 && costs[source + 1] >= 0) {
+                    dest = line * ncols + col + 1;
+                    weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0;
+                    graph.addEgde(source, dest, weight);
+                }
+                // Voisin bas-gauche (diagonale)
+                if (line < nlines - 1 && col > 0 && costs[source + ncols - 1] >= 0) {
+                    dest = (line + 1) * ncols + col - 1;
+                    weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0 * Math.sqrt(2);
+                    graph.addEgde(source, dest, weight);
+                }
+                // Voisin bas
+                if (line < nlines - 1 && costs[source + ncols] >= 0) {
+                    dest = (line + 1) * ncols + col;
+                    weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0;
+                    graph.addEgde(source, dest, weight);
+                }
+                // Voisin bas-droite (diagonale)
+                if (line < nlines - 1 && col < ncols - 1 && costs[source + ncols + 1] >= 0) {
+                    dest = (line + 1) * ncols + col + 1;
+                    weight = (graph.vertexlist.get(source).indivTime + graph.vertexlist.get(dest).indivTime) / 2.0 * Math.sqrt(2);
+                    graph.addEgde(source, dest, weight);
+                }
+            }
+        }
+
+        return graph;
+    }
+
+    /**
+     * Change le cout d'une case et tient le graphe a jour : les aretes de la case
+     * et de ses 8 voisines sont reconstruites (dans les deux sens, meme calcul de
+     * poids qu'a la construction) et les composantes connexes sont mises a jour.
+     * C'est la seule facon de modifier une case apres la construction du graphe.
+     * Pour l'affichage, le cout doit correspondre a un type de terrain de la carte.
+     *
+     * @param graph le graphe a modifier
+     * @param nlines nombre de lignes de la grille
+     * @param ncols nombre de colonnes de la grille
+     * @param v indice de la case
+     * @param cost nouveau cout (negatif : infranchissable)
+     */
+    public static void setCost(Graph graph, int nlines, int ncols, int v, int cost) {
+        graph.vertexlist.get(v).indivTime = cost;
+        int line = v / ncols;
+        int col = v % ncols;
+        for (int l = Math.max(0, line - 1); l <= Math.min(nlines - 1, line + 1); l++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(ncols - 1, col + 1); c++) {
+                rebuildEdges(graph, nlines, ncols, l * ncols + c);
+            }
+        }
+        if (graph.components != null)
+            graph.components.setPassable(v, cost >= 0);
+    }
+
+    /**
+     * Reconstruit les aretes sortantes d'un sommet, dans le meme ordre et avec
+     * le meme calcul de poids ({@link #weight}) que {@link #build}.
+     * @param graph le graphe
+     * @param nlines nombre de lignes de la grille
+     * @param ncols nombre de colonnes de la grille
+     * @param source indice du sommet
+     */
+    private static void rebuildEdges(Graph graph, int nlines, int ncols, int source) {
+        Vertex vertex = graph.vertexlist.get(source);
+        vertex.adjacencylist.clear();
+        if (vertex.indivTime < 0)
+            return;
+        int line = source / ncols;
+        int col = source % ncols;
+
+        // Haut-gauche, haut, haut-droite, gauche, droite, bas-gauche, bas, bas-droite
+        for (int dl = -1; dl <= 1; dl++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                int l = line + dl;
+                int c = col + dc;
+                if ((dl == 0 && dc == 0) || l < 0 || l >= nlines || c < 0 || c >= ncols)
+                    continue;
+                int dest = l * ncols + c;
+                double destTime = graph.vertexlist.get(dest).indivTime;
+                if (destTime < 0)
+                    continue;
+                vertex.adjacencylist.addFirst(new Edge(source, dest, weight(vertex.indivTime, destTime, dl != 0 && dc != 0)));
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package up.MainApp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Trace d'une recherche : suite des expansions et relaxations de sommets.
+ * Les evenements sont stockes dans des tableaux primitifs agrandis a la demande
+ * (par doublement), dimensionnes par la recherche reelle et jamais tronques :
+ * une trace rejouee depuis le debut reconstitue exactement l'etat de la recherche.
+ * La trace peut etre sauvegardee dans un fichier puis rejouee par {@link Board}.
+ */
+public class SearchTrace {
+    /** Marque en tete des fichiers de trace ("TRC1") */
+    static final int MAGIC = 0x54524331;
+    /** Capacite initiale des tableaux */
+    static final int INITIAL_CAPACITY = 1024;
+
+    /** Nombre de lignes de la grille sur laquelle la trace est enregistree */
+    int nlines;
+    /** Nombre de colonnes de la grille */
+    int ncols;
+    /** Sommet de depart de la recherche */
+    int start;
+    /** Sommet d'arrivee de la recherche (-1 si plusieurs destinations) */
+    int end;
+    /** Sommet de l'evenement : v pour une relaxation, ~v (negatif) pour une expansion */
+    int[] codes;
+    /** Predecesseur du sommet relaxe (inutilise pour une expansion) */
+    int[] prevs;
+    /** Nouvelle distance du sommet relaxe (inutilisee pour une expansion) */
+    double[] dists;
+    /** Nombre d'evenements enregistres */
+    int size;
+
+    /**
+     * Constructeur d'une trace vide.
+     * @param nlines nombre de lignes de la grille
+     * @param ncols nombre de colonnes de la grille
+     * @param start sommet de depart de la recherche
+     * @param end sommet d'arrivee de la recherche (-1 si plusieurs destinations)
+     */
+    public SearchTrace(int nlines, int ncols, int start, int end) {
+        this.nlines = nlines;
+        this.ncols = ncols;
+        this.start = start;
+        this.end = end;
+        this.codes = new int[INITIAL_CAPACITY];
+        this.prevs = new int[INITIAL_CAPACITY];
+        this.dists = new double[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Enregistre l'expansion d'un sommet (sortie de la file de priorite).
+     * @param v indice du sommet
+     */
+    public void expand(int v) {
+        if (size == codes.length)
+            grow();
+        codes[size++] = ~v;
+    }
+
+    /**
+     * Enregistre la relaxation d'un sommet.
+     * @param v indice du sommet relaxe
+     * @param prev indice de son nouveau predecesseur
+     * @param dist sa nouvelle distance depuis la source
+     */
+    public void relax(int v, int prev, double dist) {
+        if (size == codes.length)
+            grow();
+        codes[size] = v;
+        prevs[size] = prev;
+        dists[size] = dist;
+        size++;
+    }
+
+    /**
+     * Double la capacite des tableaux.
+     */
+    private void grow() {
+        int capacity = codes.length * 2;
+        codes = Arrays.copyOf(codes, capacity);
+        prevs = Arrays.copyOf(prevs, capacity);
+        dists = Arrays.copyOf(dists, capacity);
+    }
+
+    /**
+     * Vide la trace pour enregistrer une nouvelle recherche (la capacite est conservee).
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return nombre d'evenements enregistres
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i rang de l'evenement, entre 0 et size() - 1
+     * @return vrai si l'evenement est une expansion
+     */
+    public boolean isExpansion(int i) {
+        return codes[i] < 0;
+    }
+
+    /**
+     * @param i rang de l'evenement
+     * @return indice du sommet concerne
+     */
+    public int vertex(int i) {
+        int code = codes[i];
+        return (code < 0) ? ~code : code;
+    }
+
+    /**
+     * @param i rang d'une relaxation
+     * @return indice du nouveau predecesseur
+     */
+    public int prev(int i) {
+        return prevs[i];
+    }
+
+    /**
+     * @param i rang d'une relaxation
+     * @return nouvelle distance depuis la source
+     */
+    public double dist(int i) {
+        return dists[i];
+    }
+
+    /**
+     * Sauvegarde les evenements dans un fichier binaire.
+     * L'en-tete contient la taille de la grille et les sommets de depart et
+     * d'arrivee, pour verifier a la relecture que la trace correspond a la carte chargee.
+     * @param filename chemin du fichier
+     * @throws IOException en cas d'erreur d'ecriture
+     */
+    public void save(String filename) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(nlines);
+            out.writeInt(ncols);
+            out.writeInt(start);
+            out.writeInt(end);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(codes[i]);
+                if (codes[i] >= 0) {
+                    out.writeInt(prevs[i]);
+                    out.writeDouble(dists[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Charge une trace sauvegardee par {@link #save}.
+     * @param filename chemin du fichier
+     * @return la trace chargee
+     * @throws IOException en cas d'erreur de lecture ou de fichier invalide
+     */
+    public static SearchTrace load(String filename) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException("fichier de trace invalide");
+            int nlines = in.readInt();
+            int ncols = in.readInt();
+            int start = in.readInt();
+            int end = in.readInt();
+            int size = in.readInt();
+            if (nlines <= 0 || ncols <= 0 || size < 0)
+                throw new IOException("fichier de trace invalide");
+            int numberV = nlines * ncols;
+            if (start < 0 || start >= numberV || end < -1 || end >= numberV)
+                throw new IOException("depart ou arrivee hors de la grille " + nlines + "x" + ncols);
+            SearchTrace trace = new SearchTrace(nlines, ncols, start, end);
+            for (int i = 0; i < size; i++) {
+                int code = in.readInt();
+                int v = (code < 0) ? ~code : code;
+                if (v >= numberV)
+                    throw new IOException("sommet " + v + " hors de la grille " + nlines + "x" + ncols);
+                if (code < 0) {
+                    trace.expand(v);
+                    continue;
+                }
+                int prev = in.readInt();
+                if (prev < -1 || prev >= numberV)
+                    throw new IOException("predecesseur " + prev + " hors de la grille " + nlines + "x" + ncols);
+                trace.relax(v, prev, in.readDouble());
+            }
+            return trace;
+        }
+    }
+}
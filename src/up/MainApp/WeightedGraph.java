@@ -71,6 +71,8 @@ public class WeightedGraph {
         ArrayList<Vertex> vertexlist;
         /** Nombre de sommets */
         int num_v;
+        /** Composantes connexes de la grille (null si non calculees) */
+        Components components;
 
         /**
          * Constructeur du graphe.
@@ -100,5 +102,17 @@ public class WeightedGraph {
             Edge edge = new Edge(source, destination, weight);
             vertexlist.get(source).adjacencylist.addFirst(edge);
         }
+
+        /**
+         * Reinitialise l'etat de recherche de tous les sommets (distance, heuristique, predecesseur).
+         * Permet d'enchainer plusieurs recherches sur le meme graphe sans le recharger.
+         */
+        public void reset() {
+            for (Vertex v : vertexlist) {
+                v.timeFromSource = Double.POSITIVE_INFINITY;
+                v.heuristic = 0;
+                v.prev = null;
+            }
+        }
     }
 }